@@ -2,6 +2,7 @@
 import 'package:flutter/material.dart';
 import '../main.dart';
 import '../services/auth_service.dart';
+import '../services/call_log_store.dart';
 
 class CallsScreen extends StatefulWidget {
   const CallsScreen({super.key});
@@ -16,16 +17,29 @@ class _CallsScreenState extends State<CallsScreen> {
   Map<String, dynamic>? _currentUserProfile;
   bool _isLoadingProfile = true;
 
-  final List<Call> _allCalls = [];
-  final List<Call> _missedCalls = [];
+  final CallLogStore _callLogStore = CallLogStore.instance;
+  final ScrollController _scrollController = ScrollController();
+
+  // Calls loaded so far for the selected tab, newest first
+  final List<Call> _calls = [];
+  bool _isLoadingCalls = false;
+  bool _hasMoreCalls = true;
+  int _callsGeneration = 0; // bumped on every reset so a stale page is dropped
 
   @override
   void initState() {
     super.initState();
+    _scrollController.addListener(_handleScroll);
     _loadUserProfile();
     _loadCalls();
   }
 
+  @override
+  void dispose() {
+    _scrollController.dispose();
+    super.dispose();
+  }
+
   Future<void> _loadUserProfile() async {
     try {
       final user = _authService.currentUser;
@@ -44,94 +58,88 @@ class _CallsScreenState extends State<CallsScreen> {
     }
   }
 
-  void _loadCalls() {
-    // Sample call data
-    _allCalls.addAll([
-      Call(
-        name: 'Jane Doe',
-        time: '10:30 AM',
-        date: 'Today',
-        isMissed: false,
-        isOutgoing: true,
-        callType: CallType.voice,
-        duration: '5:32',
-        imageUrl: 'https://i.pravatar.cc/150?img=1',
-      ),
-      Call(
-        name: 'Mom',
-        time: 'Yesterday, 9:15 PM',
-        date: 'Yesterday',
-        isMissed: true,
-        isOutgoing: false,
-        callType: CallType.video,
-        duration: 'Missed',
-        imageUrl: 'https://i.pravatar.cc/150?img=20',
-      ),
-      Call(
-        name: 'John Smith',
-        time: 'Dec 12, 2:45 PM',
-        date: 'Dec 12',
-        isMissed: false,
-        isOutgoing: true,
-        callType: CallType.voice,
-        duration: '12:45',
-        imageUrl: 'https://i.pravatar.cc/150?img=12',
-      ),
-      Call(
-        name: 'Team Alpha',
-        time: 'Dec 11, 11:20 AM',
-        date: 'Dec 11',
-        isMissed: false,
-        isOutgoing: false,
-        callType: CallType.group,
-        duration: '23:18',
-        isGroup: true,
-        initials: 'TA',
-      ),
-      Call(
-        name: 'David Brown',
-        time: 'Dec 10, 4:30 PM',
-        date: 'Dec 10',
-        isMissed: true,
-        isOutgoing: false,
-        callType: CallType.voice,
-        duration: 'Missed',
-        imageUrl: 'https://i.pravatar.cc/150?img=15',
-      ),
-      Call(
-        name: 'Alex Johnson',
-        time: 'Dec 9, 3:15 PM',
-        date: 'Dec 9',
-        isMissed: false,
-        isOutgoing: true,
-        callType: CallType.video,
-        duration: '7:22',
-        imageUrl: 'https://i.pravatar.cc/150?img=33',
-      ),
-      Call(
-        name: 'Sarah Miller',
-        time: 'Dec 8, 10:45 AM',
-        date: 'Dec 8',
-        isMissed: true,
-        isOutgoing: false,
-        callType: CallType.voice,
-        duration: 'Missed',
-        imageUrl: 'https://i.pravatar.cc/150?img=44',
-      ),
-      Call(
-        name: 'Michael Chen',
-        time: 'Dec 7, 5:20 PM',
-        date: 'Dec 7',
-        isMissed: false,
-        isOutgoing: true,
-        callType: CallType.video,
-        duration: '15:30',
-        imageUrl: 'https://i.pravatar.cc/150?img=13',
-      ),
-    ]);
+  Future<void> _loadCalls() async {
+    if (_isLoadingCalls || !_hasMoreCalls) return;
 
-    // Filter missed calls
-    _missedCalls.addAll(_allCalls.where((call) => call.isMissed));
+    _isLoadingCalls = true;
+    final generation = _callsGeneration;
+    try {
+      final page = await _callLogStore.getCallsPage(
+        missedOnly: _selectedCallType == 1,
+        after: _calls.isEmpty ? null : _calls.last,
+      );
+      // Ignore a page that finished after the list was reset
+      if (!mounted || generation != _callsGeneration) return;
+      setState(() {
+        _calls.addAll(page);
+        _hasMoreCalls = page.length == CallLogStore.pageSize;
+      });
+    } catch (e) {
+      print('Error loading calls: $e');
+    } finally {
+      if (generation == _callsGeneration) {
+        _isLoadingCalls = false;
+      }
+    }
+  }
+
+  void _handleScroll() {
+    if (_scrollController.position.pixels >=
+        _scrollController.position.maxScrollExtent - 300) {
+      _loadCalls();
+    }
+  }
+
+  // Start the selected tab again from its first page
+  void _reloadCalls() {
+    setState(() {
+      _callsGeneration++;
+      _calls.clear();
+      _hasMoreCalls = true;
+      _isLoadingCalls = false;
+    });
+    _loadCalls();
+  }
+
+  void _selectCallType(int type) {
+    if (_selectedCallType == type) return;
+    _selectedCallType = type;
+    _reloadCalls();
+  }
+
+  String _formatCallTime(DateTime time) {
+    const months = [
+      'Jan', 'Feb', 'Mar', 'Apr', 'May', 'Jun',
+      'Jul', 'Aug', 'Sep', 'Oct', 'Nov', 'Dec',
+    ];
+
+    final hour = time.hour % 12 == 0 ? 12 : time.hour % 12;
+    final minute = time.minute.toString().padLeft(2, '0');
+    final period = time.hour < 12 ? 'AM' : 'PM';
+    final clock = '$hour:$minute $period';
+
+    final now = DateTime.now();
+    final today = DateTime(now.year, now.month, now.day);
+    final day = DateTime(time.year, time.month, time.day);
+    final daysAgo = today.difference(day).inDays;
+
+    if (daysAgo == 0) {
+      return clock;
+    } else if (daysAgo == 1) {
+      return 'Yesterday, $clock';
+    } else {
+      return '${months[time.month - 1]} ${time.day}, $clock';
+    }
+  }
+
+  String _formatDuration(Duration duration) {
+    final minutes = duration.inMinutes.remainder(60).toString();
+    final seconds = duration.inSeconds.remainder(60).toString().padLeft(2, '0');
+
+    if (duration.inHours > 0) {
+      return '${duration.inHours}:${minutes.padLeft(2, '0')}:$seconds';
+    }
+    return '$minutes:$seconds';
   }
 
   void _handleCallBack(Call call) {
@@ -145,7 +153,7 @@ class _CallsScreenState extends State<CallsScreen> {
     );
   }
 
-  void _handleDeleteCall(int index, bool isMissedSection) {
+  void _handleDeleteCall(Call call) {
     showDialog(
       context: context,
       builder: (context) {
@@ -158,14 +166,13 @@ class _CallsScreenState extends State<CallsScreen> {
               child: const Text('Cancel'),
             ),
             TextButton(
-              onPressed: () {
+              onPressed: () async {
                 Navigator.pop(context);
+                await _callLogStore.deleteCalls([call.id!]);
+                if (!mounted) return;
+                // The list may have been reloaded meanwhile; match by id
                 setState(() {
-                  if (isMissedSection) {
-                    _missedCalls.removeAt(index);
-                  } else {
-                    _allCalls.removeAt(index);
-                  }
+                  _calls.removeWhere((c) => c.id == call.id);
                 });
                 ScaffoldMessenger.of(context).showSnackBar(
                   const SnackBar(
@@ -187,7 +194,7 @@ class _CallsScreenState extends State<CallsScreen> {
   }
 
   void _handleClearAllMissedCalls() {
-    if (_missedCalls.isEmpty) return;
+    if (_callLogStore.missedCount.value == 0) return;
 
     showDialog(
       context: context,
@@ -201,12 +208,11 @@ class _CallsScreenState extends State<CallsScreen> {
               child: const Text('Cancel'),
             ),
             TextButton(
-              onPressed: () {
+              onPressed: () async {
                 Navigator.pop(context);
-                setState(() {
-                  _allCalls.removeWhere((call) => call.isMissed);
-                  _missedCalls.clear();
-                });
+                await _callLogStore.deleteMissedCalls();
+                if (!mounted) return;
+                _reloadCalls();
                 ScaffoldMessenger.of(context).showSnackBar(
                   const SnackBar(
                     content: Text('All missed calls cleared'),
@@ -254,7 +260,7 @@ class _CallsScreenState extends State<CallsScreen> {
                 ),
               ),
               const SizedBox(height: 20),
-              if (_selectedCallType == 1 && _missedCalls.isNotEmpty)
+              if (_selectedCallType == 1 && _callLogStore.missedCount.value > 0)
                 ListTile(
                   leading: const Icon(Icons.delete_sweep, color: Colors.red),
                   title: const Text('Clear All Missed Calls', style: TextStyle(color: Colors.red)),
@@ -349,7 +355,7 @@ class _CallsScreenState extends State<CallsScreen> {
         _buildCallTypeIcon(call.callType, call.isOutgoing),
         const SizedBox(width: 4),
         Text(
-          call.duration,
+          _formatDuration(call.duration),
           style: TextStyle(
             fontSize: 12,
             fontWeight: FontWeight.w500,
@@ -367,7 +373,6 @@ class _CallsScreenState extends State<CallsScreen> {
   Widget build(BuildContext context) {
     final isDark = Theme.of(context).brightness == Brightness.dark;
     final primaryColor = const Color(0xFF128C7E);
-    final currentCalls = _selectedCallType == 0 ? _allCalls : _missedCalls;
 
     return Scaffold(
       body: Column(
@@ -482,7 +487,7 @@ class _CallsScreenState extends State<CallsScreen> {
                         // All Calls Tab
                         Expanded(
                           child: GestureDetector(
-                            onTap: () => setState(() => _selectedCallType = 0),
+                            onTap: () => _selectCallType(0),
                             child: Container(
                               decoration: BoxDecoration(
                                 color: _selectedCallType == 0
@@ -510,7 +515,7 @@ class _CallsScreenState extends State<CallsScreen> {
                         // Missed Calls Tab
                         Expanded(
                           child: GestureDetector(
-                            onTap: () => setState(() => _selectedCallType = 1),
+                            onTap: () => _selectCallType(1),
                             child: Container(
                               decoration: BoxDecoration(
                                 color: _selectedCallType == 1
@@ -533,17 +538,25 @@ class _CallsScreenState extends State<CallsScreen> {
                                       ),
                                     ),
                                   ),
-                                  if (_missedCalls.isNotEmpty && _selectedCallType != 1)
+                                  if (_selectedCallType != 1)
                                     Positioned(
                                       top: 10,
                                       right: 20,
-                                      child: Container(
-                                        width: 8,
-                                        height: 8,
-                                        decoration: const BoxDecoration(
-                                          color: Colors.red,
-                                          shape: BoxShape.circle,
-                                        ),
+                                      child: ValueListenableBuilder<int>(
+                                        valueListenable: _callLogStore.missedCount,
+                                        builder: (context, missedCount, _) {
+                                          if (missedCount == 0) {
+                                            return const SizedBox.shrink();
+                                          }
+                                          return Container(
+                                            width: 8,
+                                            height: 8,
+                                            decoration: const BoxDecoration(
+                                              color: Colors.red,
+                                              shape: BoxShape.circle,
+                                            ),
+                                          );
+                                        },
                                       ),
                                     ),
                                 ],
@@ -563,14 +576,15 @@ class _CallsScreenState extends State<CallsScreen> {
           Expanded(
             child: Container(
               color: isDark ? const Color(0xFF11211F) : Colors.white,
-              child: currentCalls.isEmpty
+              child: _calls.isEmpty && !_hasMoreCalls
                   ? _buildEmptyState(isDark)
                   : ListView.builder(
-                itemCount: currentCalls.length,
+                controller: _scrollController,
+                itemCount: _calls.length,
                 padding: const EdgeInsets.only(bottom: 80),
                 itemBuilder: (context, index) {
-                  final call = currentCalls[index];
-                  return _buildCallItem(call, index, _selectedCallType == 1, isDark);
+                  final call = _calls[index];
+                  return _buildCallItem(call, isDark);
                 },
               ),
             ),
@@ -593,12 +607,12 @@ class _CallsScreenState extends State<CallsScreen> {
     );
   }
 
-  Widget _buildCallItem(Call call, int index, bool isMissedSection, bool isDark) {
+  Widget _buildCallItem(Call call, bool isDark) {
     return Material(
       color: isDark ? const Color(0xFF11211F) : Colors.white,
       child: InkWell(
         onTap: () => _handleCallBack(call),
-        onLongPress: () => _handleDeleteCall(index, isMissedSection),
+        onLongPress: () => _handleDeleteCall(call),
         child: Container(
           padding: const EdgeInsets.symmetric(horizontal: 16, vertical: 12),
           decoration: BoxDecoration(
@@ -660,7 +674,7 @@ class _CallsScreenState extends State<CallsScreen> {
                           ),
                         ),
                         Text(
-                          call.time,
+                          _formatCallTime(call.startedAt),
                           style: TextStyle(
                             fontSize: 12,
                             fontWeight: FontWeight.w500,
@@ -765,35 +779,3 @@ class _CallsScreenState extends State<CallsScreen> {
     );
   }
 }
-
-enum CallType {
-  voice,
-  video,
-  group,
-}
-
-class Call {
-  final String name;
-  final String time;
-  final String date;
-  final bool isMissed;
-  final bool isOutgoing;
-  final CallType callType;
-  final String duration;
-  final String? imageUrl;
-  final bool isGroup;
-  final String? initials;
-
-  Call({
-    required this.name,
-    required this.time,
-    required this.date,
-    required this.isMissed,
-    required this.isOutgoing,
-    required this.callType,
-    required this.duration,
-    this.imageUrl,
-    this.isGroup = false,
-    this.initials,
-  });
-}
\ No newline at end of file
@@ -4,6 +4,7 @@ import 'package:flutter/material.dart';
 import 'dart:async';
 import '../services/chat_service.dart';
 import '../services/auth_service.dart';
+import '../services/message_store.dart';
 
 class ChatScreen extends StatefulWidget {
   final String chatId;
@@ -33,7 +34,10 @@ class _ChatScreenState extends State<ChatScreen> {
 
   StreamSubscription? _messagesSubscription;
   StreamSubscription? _typingSubscription;
-  List<Map<String, dynamic>> _messages = [];
+  // Newest first; older pages are appended as the user scrolls up
+  final List<Map<String, dynamic>> _messages = [];
+  bool _isLoadingHistory = false;
+  bool _hasMoreHistory = true;
   bool _isOtherUserTyping = false;
   Timer? _typingTimer;
   String? _currentUserId;
@@ -42,9 +46,10 @@ class _ChatScreenState extends State<ChatScreen> {
   void initState() {
     super.initState();
     _currentUserId = _authService.currentUser?.id;
+    _scrollController.addListener(_handleScroll);
     _listenToMessages();
+    _loadInitialMessages();
     _listenToTypingStatus();
-    _markMessagesAsRead();
   }
 
   @override
@@ -52,19 +57,166 @@ class _ChatScreenState extends State<ChatScreen> {
     _messagesSubscription?.cancel();
     _typingSubscription?.cancel();
     _typingTimer?.cancel();
+    _chatService.flushReadReceipts();
     _messageController.dispose();
     _scrollController.dispose();
     super.dispose();
   }
 
-  void _listenToMessages() {
-    _messagesSubscription = _chatService.listenToMessages(widget.chatId).listen((messages) {
+  Future<void> _loadInitialMessages() async {
+    // Show what is cached on the device straight away
+    final cached = await _chatService.getCachedMessages(widget.chatId);
+    if (!mounted) return;
+    if (cached.isNotEmpty) {
+      setState(() {
+        _mergeMessages(cached);
+      });
+    }
+
+    // Then bring the newest page up to date from the server
+    await _syncLatestMessages(cached.isNotEmpty ? cached.first : null);
+  }
+
+  // Fetch the newest page and merge it. [knownNewest] is the newest message
+  // already shown; if the page doesn't reach back to it, messages were
+  // missed in between and the older rows on screen no longer connect.
+  Future<void> _syncLatestMessages(Map<String, dynamic>? knownNewest) async {
+    final latest = await _chatService.syncLatestMessages(
+      widget.chatId,
+      cachedNewest: knownNewest,
+    );
+    if (!mounted || latest == null) return;
+
+    setState(() {
+      if (knownNewest != null && !ChatService.reachesMessage(latest, knownNewest)) {
+        // Start over from the newest page, keeping any realtime rows that
+        // arrived while the sync was running
+        final newer = _messages
+            .where((m) => MessageStore.compareNewestFirst(m, latest.first) < 0)
+            .toList();
+        _messages
+          ..clear()
+          ..addAll(latest);
+        _mergeMessages(newer);
+        _hasMoreHistory = true;
+      } else {
+        _mergeMessages(latest);
+        // A short newest page means the server sent the whole chat
+        if (latest.length < ChatService.messagePageSize) {
+          _hasMoreHistory = false;
+        }
+      }
+    });
+    _markMessagesAsRead();
+  }
+
+  Future<void> _loadOlderMessages() async {
+    if (_isLoadingHistory || !_hasMoreHistory || _messages.isEmpty) return;
+
+    setState(() {
+      _isLoadingHistory = true;
+    });
+
+    final oldest = _messages.last;
+
+    // Cached page first so scrolling stays instant...
+    final cached = await _chatService.getCachedMessages(
+      widget.chatId,
+      before: oldest,
+    );
+    if (!mounted) return;
+    if (cached.isNotEmpty) {
       setState(() {
-        _messages = messages;
+        _mergeMessages(cached);
       });
+    }
+
+    // ...then the same range from the server, which replaces the cached
+    // copies (soft deletes and read receipts made while the chat was closed)
+    final fresh = await _chatService.fetchMessagesPage(
+      widget.chatId,
+      before: oldest,
+    );
+    if (!mounted) return;
+
+    setState(() {
+      if (fresh != null) {
+        _mergeMessages(fresh);
+        _hasMoreHistory = fresh.length == ChatService.messagePageSize;
+      }
+      _isLoadingHistory = false;
+    });
+
+    if (fresh == null && cached.isEmpty) {
+      ScaffoldMessenger.of(context).showSnackBar(
+        const SnackBar(
+          content: Text('Could not load older messages'),
+          backgroundColor: Colors.red,
+        ),
+      );
+    }
+  }
+
+  // Insert or replace rows by id, keeping the list newest first
+  void _mergeMessages(List<Map<String, dynamic>> rows) {
+    for (final row in rows) {
+      final index = _messages.indexWhere((m) => m['id'] == row['id']);
+      if (index != -1) {
+        _messages[index] = row;
+        continue;
+      }
+
+      var insertAt = _messages.length;
+      while (insertAt > 0 &&
+          MessageStore.compareNewestFirst(_messages[insertAt - 1], row) > 0) {
+        insertAt--;
+      }
+      _messages.insert(insertAt, row);
+    }
+  }
+
+  void _handleScroll() {
+    // The list is reversed, so older history sits at the max extent
+    if (_scrollController.position.pixels >=
+        _scrollController.position.maxScrollExtent - 300) {
+      _loadOlderMessages();
+    }
+  }
+
+  void _listenToMessages() {
+    _messagesSubscription = _chatService
+        .listenToMessageChanges(
+          widget.chatId,
+          // Catch up on anything sent while the connection was down
+          onResubscribed: () => _syncLatestMessages(
+            _messages.isNotEmpty ? _messages.first : null,
+          ),
+        )
+        .listen(_applyMessageChange);
+  }
+
+  void _applyMessageChange(Map<String, dynamic> message) {
+    final isNew = !_messages.any((m) => m['id'] == message['id']);
+
+    // Older than anything loaded; it will arrive with its history page
+    if (isNew &&
+        _hasMoreHistory &&
+        _messages.isNotEmpty &&
+        MessageStore.compareNewestFirst(message, _messages.last) > 0) {
+      return;
+    }
+
+    setState(() {
+      _mergeMessages([message]);
+    });
+
+    if (!isNew) return;
+    if (identical(_messages.first, message)) {
       _scrollToBottom();
+    }
+    if (message['sender_id'] != _currentUserId && message['is_read'] != true) {
       _markMessagesAsRead();
-    });
+    }
   }
 
   void _listenToTypingStatus() {
@@ -79,7 +231,7 @@ class _ChatScreenState extends State<ChatScreen> {
 
   void _markMessagesAsRead() {
     if (_currentUserId != null) {
-      _chatService.markMessagesAsRead(widget.chatId, _currentUserId!);
+      _chatService.scheduleMarkMessagesAsRead(widget.chatId, _currentUserId!);
     }
   }
 
@@ -87,7 +239,7 @@ class _ChatScreenState extends State<ChatScreen> {
     WidgetsBinding.instance.addPostFrameCallback((_) {
       if (_scrollController.hasClients) {
         _scrollController.animateTo(
-          _scrollController.position.maxScrollExtent,
+          0,
           duration: const Duration(milliseconds: 300),
           curve: Curves.easeOut,
         );
@@ -317,22 +469,36 @@ class _ChatScreenState extends State<ChatScreen> {
               )
                   : ListView.builder(
                 controller: _scrollController,
+                reverse: true,
                 padding: const EdgeInsets.symmetric(
                   horizontal: 16,
                   vertical: 16,
                 ),
-                itemCount: _messages.length,
+                itemCount: _messages.length + (_isLoadingHistory ? 1 : 0),
                 itemBuilder: (context, index) {
+                  if (index == _messages.length) {
+                    return const Padding(
+                      padding: EdgeInsets.symmetric(vertical: 16),
+                      child: Center(
+                        child: SizedBox(
+                          width: 20,
+                          height: 20,
+                          child: CircularProgressIndicator(strokeWidth: 2),
+                        ),
+                      ),
+                    );
+                  }
+
                   final message = _messages[index];
                   final isMe = message['sender_id'] == _currentUserId;
                   final isDeleted = message['is_deleted'] ?? false;
 
                   // Group messages by date
                   bool showDateSeparator = false;
-                  if (index == 0) {
+                  if (index == _messages.length - 1) {
                     showDateSeparator = true;
                   } else {
-                    final prevMessage = _messages[index - 1];
+                    final prevMessage = _messages[index + 1];
                     final currentDate = DateTime.parse(message['created_at']);
                     final prevDate = DateTime.parse(prevMessage['created_at']);
                     showDateSeparator = currentDate.day != prevDate.day;
@@ -2,6 +2,7 @@
 
 import 'package:supabase_flutter/supabase_flutter.dart';
 import '../config/supabase_config.dart';
+import 'message_store.dart';
 
 class AuthService {
   final SupabaseClient _supabase = SupabaseConfig.client;
@@ -245,6 +246,8 @@ class AuthService {
   Future<void> logout() async {
     try {
       await _supabase.auth.signOut();
+      // Don't leave the previous user's conversations on the device
+      await MessageStore.instance.clear();
     } catch (e) {
       rethrow;
     }
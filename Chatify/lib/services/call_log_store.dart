@@ -0,0 +1,207 @@
+// lib/services/call_log_store.dart
+
+import 'package:flutter/foundation.dart';
+import 'package:sqflite/sqflite.dart';
+import 'package:path/path.dart';
+
+enum CallType {
+  voice,
+  video,
+  group,
+}
+
+class Call {
+  final int? id;
+  final String name;
+  final DateTime startedAt;
+  final bool isMissed;
+  final bool isOutgoing;
+  final CallType callType;
+  final Duration duration;
+  final String? imageUrl;
+  final bool isGroup;
+  final String? initials;
+
+  Call({
+    this.id,
+    required this.name,
+    required this.startedAt,
+    required this.isMissed,
+    required this.isOutgoing,
+    required this.callType,
+    this.duration = Duration.zero,
+    this.imageUrl,
+    this.isGroup = false,
+    this.initials,
+  });
+
+  Map<String, dynamic> toMap() {
+    return {
+      if (id != null) 'id': id,
+      'name': name,
+      'started_at': startedAt.millisecondsSinceEpoch,
+      'is_missed': isMissed ? 1 : 0,
+      'is_outgoing': isOutgoing ? 1 : 0,
+      'call_type': callType.index,
+      'duration_seconds': duration.inSeconds,
+      'image_url': imageUrl,
+      'is_group': isGroup ? 1 : 0,
+      'initials': initials,
+    };
+  }
+
+  factory Call.fromMap(Map<String, dynamic> map) {
+    return Call(
+      id: map['id'],
+      name: map['name'],
+      startedAt: DateTime.fromMillisecondsSinceEpoch(map['started_at']),
+      isMissed: map['is_missed'] == 1,
+      isOutgoing: map['is_outgoing'] == 1,
+      callType: CallType.values[map['call_type']],
+      duration: Duration(seconds: map['duration_seconds']),
+      imageUrl: map['image_url'],
+      isGroup: map['is_group'] == 1,
+      initials: map['initials'],
+    );
+  }
+}
+
+// Persistent call history.
+// Calls are indexed by start time and by (missed, start time), so both tabs
+// page newest-first with a (started_at, id) cursor. The missed-call count is
+// read once and then kept up to date by every insert and delete.
+class CallLogStore {
+  static final CallLogStore instance = CallLogStore._init();
+  static Database? _database;
+
+  CallLogStore._init();
+
+  static const String _table = 'call_log';
+
+  // Number of calls loaded per page
+  static const int pageSize = 30;
+
+  final ValueNotifier<int> missedCount = ValueNotifier<int>(0);
+
+  Future<Database> get database async {
+    if (_database != null) return _database!;
+    _database = await _initDB('chatify_calls.db');
+    await _loadMissedCount(_database!);
+    return _database!;
+  }
+
+  Future<Database> _initDB(String filePath) async {
+    final dbPath = await getDatabasesPath();
+    final path = join(dbPath, filePath);
+
+    return await openDatabase(
+      path,
+      version: 1,
+      onCreate: _createDB,
+    );
+  }
+
+  Future _createDB(Database db, int version) async {
+    await db.execute('''
+      CREATE TABLE $_table (
+        id INTEGER PRIMARY KEY AUTOINCREMENT,
+        name TEXT NOT NULL,
+        started_at INTEGER NOT NULL,
+        is_missed INTEGER NOT NULL,
+        is_outgoing INTEGER NOT NULL,
+        call_type INTEGER NOT NULL,
+        duration_seconds INTEGER NOT NULL DEFAULT 0,
+        image_url TEXT,
+        is_group INTEGER NOT NULL DEFAULT 0,
+        initials TEXT
+      )
+    ''');
+
+    await db.execute(
+      'CREATE INDEX idx_call_log_time ON $_table (started_at DESC, id DESC)',
+    );
+    await db.execute(
+      'CREATE INDEX idx_call_log_missed ON $_table (is_missed, started_at DESC, id DESC)',
+    );
+  }
+
+  Future<void> _loadMissedCount(Database db) async {
+    final result = await db.rawQuery(
+      'SELECT COUNT(*) FROM $_table WHERE is_missed = 1',
+    );
+    missedCount.value = Sqflite.firstIntValue(result) ?? 0;
+  }
+
+  // ADD CALL
+  Future<int> insertCall(Call call) async {
+    final db = await database;
+    final id = await db.insert(_table, call.toMap());
+    if (call.isMissed) missedCount.value++;
+    return id;
+  }
+
+  // GET A PAGE OF CALLS (newest first)
+  // Pass the last loaded call as [after] to continue from it.
+  Future<List<Call>> getCallsPage({
+    bool missedOnly = false,
+    Call? after,
+    int limit = pageSize,
+  }) async {
+    final db = await database;
+
+    final conditions = <String>[];
+    final args = <Object>[];
+
+    if (missedOnly) {
+      conditions.add('is_missed = 1');
+    }
+    if (after != null) {
+      final startedAt = after.startedAt.millisecondsSinceEpoch;
+      conditions.add('(started_at < ? OR (started_at = ? AND id < ?))');
+      args.addAll([startedAt, startedAt, after.id!]);
+    }
+
+    final result = await db.query(
+      _table,
+      where: conditions.isEmpty ? null : conditions.join(' AND '),
+      whereArgs: args.isEmpty ? null : args,
+      orderBy: 'started_at DESC, id DESC',
+      limit: limit,
+    );
+    return result.map((map) => Call.fromMap(map)).toList();
+  }
+
+  // DELETE CALLS by id
+  Future<int> deleteCalls(List<int> ids) async {
+    if (ids.isEmpty) return 0;
+
+    final db = await database;
+    final placeholders = List.filled(ids.length, '?').join(', ');
+
+    var deleted = 0;
+    var missedDeleted = 0;
+    await db.transaction((txn) async {
+      missedDeleted = Sqflite.firstIntValue(await txn.rawQuery(
+            'SELECT COUNT(*) FROM $_table WHERE is_missed = 1 AND id IN ($placeholders)',
+            ids,
+          )) ??
+          0;
+      deleted = await txn.delete(
+        _table,
+        where: 'id IN ($placeholders)',
+        whereArgs: ids,
+      );
+    });
+
+    missedCount.value -= missedDeleted;
+    return deleted;
+  }
+
+  // DELETE ALL MISSED CALLS
+  Future<int> deleteMissedCalls() async {
+    final db = await database;
+    final deleted = await db.delete(_table, where: 'is_missed = 1');
+    missedCount.value = 0;
+    return deleted;
+  }
+}
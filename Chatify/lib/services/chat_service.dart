@@ -1,10 +1,21 @@
 // lib/services/chat_service.dart
 
+import 'dart:async';
 import 'package:supabase_flutter/supabase_flutter.dart';
 import '../config/supabase_config.dart';
+import 'message_store.dart';
 
 class ChatService {
   final SupabaseClient _supabase = SupabaseConfig.client;
+  final MessageStore _messageStore = MessageStore.instance;
+
+  // Number of messages loaded per history page
+  static const int messagePageSize = 50;
+
+  // Read receipts are coalesced and written at most once per window
+  static const Duration _readReceiptDelay = Duration(milliseconds: 800);
+  final Map<String, String> _pendingReadReceipts = {};
+  Timer? _readReceiptTimer;
 
   // GET ALL USERS (excluding current user)
   Future<List<Map<String, dynamic>>> getAllUsers() async {
@@ -184,9 +195,136 @@ class ChatService {
     });
   }
 
+  // GET CACHED MESSAGES PAGE (newest first, from device)
+  Future<List<Map<String, dynamic>>> getCachedMessages(
+    String chatId, {
+    Map<String, dynamic>? before,
+    int limit = messagePageSize,
+  }) {
+    return _messageStore.getMessagesPage(chatId, before: before, limit: limit);
+  }
+
+  // FETCH MESSAGES PAGE (newest first, from server)
+  // [before] is the oldest message already loaded; the page returned ends
+  // just before it. Results are written through to the local store.
+  // Returns null if the request failed, so callers can tell an error apart
+  // from the start of the chat (a page shorter than [limit]).
+  Future<List<Map<String, dynamic>>?> fetchMessagesPage(
+    String chatId, {
+    Map<String, dynamic>? before,
+    int limit = messagePageSize,
+  }) async {
+    try {
+      var query = _supabase.from('messages').select().eq('chat_id', chatId);
+
+      if (before != null) {
+        final createdAt = before['created_at'];
+        final id = before['id'];
+        query = query.or(
+          'created_at.lt."$createdAt",and(created_at.eq."$createdAt",id.lt.$id)',
+        );
+      }
+
+      final response = await query
+          .order('created_at', ascending: false)
+          .order('id', ascending: false)
+          .limit(limit);
+
+      final messages = List<Map<String, dynamic>>.from(response);
+      await _messageStore.upsertMessages(messages);
+      return messages;
+    } catch (e) {
+      print('Error fetching messages page: $e');
+      return null;
+    }
+  }
+
+  // SYNC LATEST MESSAGES into the local store
+  // Returns the newest page from the server (null on error). If it does not
+  // reach back to [cachedNewest], older cached history is dropped so paging
+  // can't skip a gap.
+  Future<List<Map<String, dynamic>>?> syncLatestMessages(
+    String chatId, {
+    Map<String, dynamic>? cachedNewest,
+  }) async {
+    final latest = await fetchMessagesPage(chatId);
+    if (latest == null) return null;
+
+    if (cachedNewest != null && !reachesMessage(latest, cachedNewest)) {
+      await _messageStore.deleteMessagesBefore(chatId, latest.last);
+    }
+
+    return latest;
+  }
+
+  // Whether a newest-first server [page] overlaps or runs past [message]
+  static bool reachesMessage(
+    List<Map<String, dynamic>> page,
+    Map<String, dynamic> message,
+  ) {
+    if (page.length < messagePageSize) return true; // whole chat
+    return MessageStore.compareNewestFirst(page.last, message) >= 0;
+  }
+
+  // LISTEN TO MESSAGE CHANGES (Real-time deltas)
+  // Emits each inserted or updated row instead of the whole chat.
+  // Changes sent while the socket was down are not replayed, so
+  // [onResubscribed] is called each time the channel comes back after the
+  // first subscribe; callers should re-sync the newest page there.
+  Stream<Map<String, dynamic>> listenToMessageChanges(
+    String chatId, {
+    void Function()? onResubscribed,
+  }) {
+    late final StreamController<Map<String, dynamic>> controller;
+    RealtimeChannel? channel;
+    var hasSubscribed = false;
+
+    controller = StreamController<Map<String, dynamic>>(
+      onListen: () {
+        channel = _supabase
+            .channel('messages:$chatId')
+            .onPostgresChanges(
+              event: PostgresChangeEvent.all,
+              schema: 'public',
+              table: 'messages',
+              filter: PostgresChangeFilter(
+                type: PostgresChangeFilterType.eq,
+                column: 'chat_id',
+                value: chatId,
+              ),
+              callback: (payload) async {
+                final record = payload.newRecord;
+                if (record.isEmpty) return;
+
+                await _messageStore.upsertMessages([record]);
+                if (!controller.isClosed) {
+                  controller.add(record);
+                }
+              },
+            )
+            .subscribe((status, _) {
+              if (status != RealtimeSubscribeStatus.subscribed) return;
+              if (hasSubscribed && !controller.isClosed) {
+                onResubscribed?.call();
+              }
+              hasSubscribed = true;
+            });
+      },
+      onCancel: () async {
+        if (channel != null) {
+          await _supabase.removeChannel(channel!);
+        }
+        await controller.close();
+      },
+    );
+
+    return controller.stream;
+  }
+
   // MARK MESSAGES AS READ
   Future<void> markMessagesAsRead(String chatId, String userId) async {
     try {
+      await _messageStore.markMessagesAsRead(chatId, userId);
       await _supabase
           .from('messages')
           .update({'is_read': true})
@@ -198,6 +336,26 @@ class ChatService {
     }
   }
 
+  // SCHEDULE READ RECEIPT (batched)
+  // Repeated calls within the delay window result in a single update.
+  void scheduleMarkMessagesAsRead(String chatId, String userId) {
+    _pendingReadReceipts[chatId] = userId;
+    _readReceiptTimer ??= Timer(_readReceiptDelay, flushReadReceipts);
+  }
+
+  // FLUSH PENDING READ RECEIPTS
+  Future<void> flushReadReceipts() async {
+    _readReceiptTimer?.cancel();
+    _readReceiptTimer = null;
+
+    final pending = Map<String, String>.from(_pendingReadReceipts);
+    _pendingReadReceipts.clear();
+
+    for (final entry in pending.entries) {
+      await markMessagesAsRead(entry.key, entry.value);
+    }
+  }
+
   // DELETE MESSAGE
   Future<bool> deleteMessage(String messageId) async {
     try {
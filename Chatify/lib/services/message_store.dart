@@ -0,0 +1,231 @@
+// lib/services/message_store.dart
+
+import 'package:sqflite/sqflite.dart';
+import 'package:path/path.dart';
+
+// On-device cache of chat messages.
+// Rows are kept in the same shape Supabase returns them so screens can use
+// either source interchangeably. History is paged newest-first with a
+// (created_at, id) cursor, backed by an index on (chat_id, created_at, id).
+// created_at is kept at full (microsecond) precision, and offset-less
+// timestamps (the column is TIMESTAMP without time zone) are read as UTC, so
+// the local cursor orders rows exactly like the server does.
+//
+// The cache only makes pages appear instantly; it is never the source of
+// truth. Every page shown from it is re-fetched from Supabase with the same
+// cursor and upserted, so edits made while the chat was closed (soft
+// deletes, read receipts) replace the cached copies.
+class MessageStore {
+  static final MessageStore instance = MessageStore._init();
+  static Database? _database;
+
+  MessageStore._init();
+
+  static const String _table = 'messages';
+
+  Future<Database> get database async {
+    if (_database != null) return _database!;
+    _database = await _initDB('chatify_messages.db');
+    return _database!;
+  }
+
+  Future<Database> _initDB(String filePath) async {
+    final dbPath = await getDatabasesPath();
+    final path = join(dbPath, filePath);
+
+    return await openDatabase(
+      path,
+      version: 3,
+      onCreate: _createDB,
+      onUpgrade: _upgradeDB,
+    );
+  }
+
+  Future _createDB(Database db, int version) async {
+    await db.execute('''
+      CREATE TABLE $_table (
+        id TEXT PRIMARY KEY,
+        chat_id TEXT NOT NULL,
+        sender_id TEXT NOT NULL,
+        content TEXT NOT NULL,
+        message_type TEXT,
+        media_url TEXT,
+        is_read INTEGER NOT NULL DEFAULT 0,
+        is_deleted INTEGER NOT NULL DEFAULT 0,
+        created_at TEXT NOT NULL,
+        created_at_us INTEGER NOT NULL
+      )
+    ''');
+
+    await db.execute('''
+      CREATE INDEX idx_messages_chat_time
+      ON $_table (chat_id, created_at_us DESC, id DESC)
+    ''');
+  }
+
+  // Version 1 sorted on milliseconds and version 2 read offset-less
+  // timestamps as local time; it is only a cache, so rebuild it
+  Future _upgradeDB(Database db, int oldVersion, int newVersion) async {
+    if (oldVersion < 3) {
+      await db.execute('DROP TABLE IF EXISTS $_table');
+      await _createDB(db, newVersion);
+    }
+  }
+
+  // SAVE MESSAGES (insert or replace by id)
+  Future<void> upsertMessages(List<Map<String, dynamic>> messages) async {
+    if (messages.isEmpty) return;
+
+    try {
+      final db = await database;
+      final batch = db.batch();
+      for (final message in messages) {
+        batch.insert(
+          _table,
+          _toRow(message),
+          conflictAlgorithm: ConflictAlgorithm.replace,
+        );
+      }
+      await batch.commit(noResult: true);
+    } catch (e) {
+      print('Error saving messages locally: $e');
+    }
+  }
+
+  // GET A PAGE OF MESSAGES (newest first)
+  // Pass the oldest loaded message as [before] to get the page preceding it.
+  Future<List<Map<String, dynamic>>> getMessagesPage(
+    String chatId, {
+    Map<String, dynamic>? before,
+    int limit = 50,
+  }) async {
+    try {
+      final db = await database;
+
+      String where = 'chat_id = ?';
+      final whereArgs = <Object>[chatId];
+
+      if (before != null) {
+        final cursorUs = createdAtMicros(before['created_at']);
+        where += ' AND (created_at_us < ? OR (created_at_us = ? AND id < ?))';
+        whereArgs.addAll([cursorUs, cursorUs, before['id'] as String]);
+      }
+
+      final rows = await db.query(
+        _table,
+        where: where,
+        whereArgs: whereArgs,
+        orderBy: 'created_at_us DESC, id DESC',
+        limit: limit,
+      );
+
+      return rows.map(_fromRow).toList();
+    } catch (e) {
+      print('Error reading local messages: $e');
+      return [];
+    }
+  }
+
+  // MARK INCOMING MESSAGES AS READ (local copy)
+  Future<void> markMessagesAsRead(String chatId, String userId) async {
+    try {
+      final db = await database;
+      await db.update(
+        _table,
+        {'is_read': 1},
+        where: 'chat_id = ? AND sender_id != ? AND is_read = 0',
+        whereArgs: [chatId, userId],
+      );
+    } catch (e) {
+      print('Error marking local messages as read: $e');
+    }
+  }
+
+  // DROP CACHED HISTORY older than [message]
+  // Used when the remote head no longer connects to what is cached, so
+  // paging never skips over messages that were missed while offline.
+  Future<void> deleteMessagesBefore(
+    String chatId,
+    Map<String, dynamic> message,
+  ) async {
+    try {
+      final db = await database;
+      final cursorUs = createdAtMicros(message['created_at']);
+      await db.delete(
+        _table,
+        where: 'chat_id = ? AND (created_at_us < ? OR (created_at_us = ? AND id < ?))',
+        whereArgs: [chatId, cursorUs, cursorUs, message['id'] as String],
+      );
+    } catch (e) {
+      print('Error trimming local messages: $e');
+    }
+  }
+
+  // CLEAR ALL CACHED MESSAGES (on logout)
+  Future<void> clear() async {
+    try {
+      final db = await database;
+      await db.delete(_table);
+    } catch (e) {
+      print('Error clearing local messages: $e');
+    }
+  }
+
+  static final RegExp _utcOffset = RegExp(
+    r'\d{2}:\d{2}(:\d{2}(\.\d+)?)?(Z|[+-]\d{2}(:?\d{2})?)$',
+  );
+
+  // Sort key for a Supabase timestamp string (microsecond precision).
+  // Strings without an offset are read as UTC, not device-local time, so a
+  // DST change can't reorder them.
+  static int createdAtMicros(dynamic createdAt) {
+    if (createdAt == null) return 0;
+    try {
+      var text = createdAt as String;
+      if (!_utcOffset.hasMatch(text)) text = '${text}Z';
+      return DateTime.parse(text).microsecondsSinceEpoch;
+    } catch (e) {
+      return 0;
+    }
+  }
+
+  // Store order: negative when [a] is newer than [b] (created_at, then id)
+  static int compareNewestFirst(
+    Map<String, dynamic> a,
+    Map<String, dynamic> b,
+  ) {
+    final byTime = createdAtMicros(b['created_at'])
+        .compareTo(createdAtMicros(a['created_at']));
+    if (byTime != 0) return byTime;
+    return (b['id'] as String).compareTo(a['id'] as String);
+  }
+
+  Map<String, dynamic> _toRow(Map<String, dynamic> message) {
+    return {
+      'id': message['id'],
+      'chat_id': message['chat_id'],
+      'sender_id': message['sender_id'],
+      'content': message['content'] ?? '',
+      'message_type': message['message_type'],
+      'media_url': message['media_url'],
+      'is_read': message['is_read'] == true ? 1 : 0,
+      'is_deleted': message['is_deleted'] == true ? 1 : 0,
+      'created_at': message['created_at'],
+      'created_at_us': createdAtMicros(message['created_at']),
+    };
+  }
+
+  Map<String, dynamic> _fromRow(Map<String, dynamic> row) {
+    return {
+      'id': row['id'],
+      'chat_id': row['chat_id'],
+      'sender_id': row['sender_id'],
+      'content': row['content'],
+      'message_type': row['message_type'],
+      'media_url': row['media_url'],
+      'is_read': row['is_read'] == 1,
+      'is_deleted': row['is_deleted'] == 1,
+      'created_at': row['created_at'],
+    };
+  }
+}
@@ -0,0 +1,135 @@
+// Compares the exact grade planner with the greedy loop PredictorScreen used
+// before it. Run from the calculator directory:
+//
+//   dart run benchmark/grade_plan_benchmark.dart
+
+import 'dart:math';
+
+import 'package:comsats_cgpa_calculator/utils/grade_plan.dart';
+
+const List<double> _ladder = [4.00, 3.67, 3.33, 3.00, 2.67, 2.33, 2.00, 1.00, 0.00];
+
+/// --- The previous greedy planner (predictor_screen.dart), minus the UI ---
+/// Start with all A; while above the required QP, apply the single one-step
+/// downgrade that just clears the gap, else the smallest one. Capped at
+/// 10000 iterations.
+GradePlan greedyGradePlan(GradePlanRequest request) {
+  final ladder = request.ladder;
+  final order = List<int>.generate(request.creditHours.length, (i) => i)
+    ..sort((a, b) => request.creditHours[b].compareTo(request.creditHours[a]));
+  final ladderIndex = List<int>.filled(request.creditHours.length, 0);
+
+  double currentQP = request.creditHours.fold(0.0, (s, c) => s + ladder.first * c);
+  final requiredQP = request.requiredQP;
+
+  const double eps = 1e-6;
+  int safety = 10000;
+
+  while (currentQP - requiredQP > eps && safety-- > 0) {
+    final gap = currentQP - requiredQP;
+
+    int bestCourse = -1;
+    double bestDelta = double.infinity;
+
+    for (final i in order) {
+      final idx = ladderIndex[i];
+      if (idx >= ladder.length - 1) continue;
+
+      final deltaQP = (ladder[idx] - ladder[idx + 1]) * request.creditHours[i];
+
+      if (deltaQP >= gap - eps) {
+        if (deltaQP < bestDelta) {
+          bestDelta = deltaQP;
+          bestCourse = i;
+        }
+      } else {
+        if (bestCourse == -1 && deltaQP < bestDelta) {
+          bestDelta = deltaQP;
+          bestCourse = i;
+        }
+      }
+    }
+
+    if (bestCourse == -1) break;
+
+    ladderIndex[bestCourse]++;
+    currentQP -= bestDelta;
+  }
+
+  return GradePlan(
+    gradePoints: ladderIndex.map((j) => ladder[j]).toList(),
+    qualityPoints: currentQP,
+    feasible: currentQP >= requiredQP - eps,
+  );
+}
+
+List<GradePlanRequest> _randomRequests(Random random, int courseCount, int count) {
+  const credits = [1.0, 2.0, 3.0, 3.0, 3.0, 4.0, 1.5];
+
+  return List.generate(count, (_) {
+    final creditHours = List.generate(courseCount, (_) => credits[random.nextInt(credits.length)]);
+    final totalCredits = creditHours.fold(0.0, (s, c) => s + c);
+    final requiredSGPA = 1.0 + random.nextDouble() * 2.95;
+    return GradePlanRequest(
+      creditHours: creditHours,
+      ladder: _ladder,
+      requiredQP: requiredSGPA * totalCredits,
+    );
+  });
+}
+
+double _microsPerRun(List<GradePlanRequest> requests, GradePlan Function(GradePlanRequest) planner) {
+  // warm up
+  for (final r in requests) {
+    planner(r);
+  }
+
+  final stopwatch = Stopwatch()..start();
+  const rounds = 5;
+  for (var i = 0; i < rounds; i++) {
+    for (final r in requests) {
+      planner(r);
+    }
+  }
+  stopwatch.stop();
+  return stopwatch.elapsedMicroseconds / (rounds * requests.length);
+}
+
+void main() {
+  final random = Random(42);
+  const samples = 200;
+
+  // greedy short: greedy plan ends below the required QP
+  // greedy worse: greedy reaches the target but asks for more QP than needed
+  print('courses | greedy us/plan | exact us/plan | greedy worse | greedy short | avg extra QP');
+  print('--------+----------------+---------------+--------------+--------------+-------------');
+
+  for (final courseCount in [3, 5, 7, 10, 15, 25]) {
+    final requests = _randomRequests(random, courseCount, samples);
+
+    var worse = 0;
+    var short = 0;
+    var extraQP = 0.0;
+    for (final r in requests) {
+      final greedy = greedyGradePlan(r);
+      final exact = solveGradePlan(r);
+
+      if (!greedy.feasible) {
+        short++;
+      } else if (greedy.qualityPoints > exact.qualityPoints + 1e-6) {
+        worse++;
+        extraQP += greedy.qualityPoints - exact.qualityPoints;
+      }
+    }
+
+    final greedyMicros = _microsPerRun(requests, greedyGradePlan);
+    final exactMicros = _microsPerRun(requests, solveGradePlan);
+
+    print('${courseCount.toString().padLeft(7)} | '
+        '${greedyMicros.toStringAsFixed(1).padLeft(14)} | '
+        '${exactMicros.toStringAsFixed(1).padLeft(13)} | '
+        '${'$worse/$samples'.padLeft(12)} | '
+        '${'$short/$samples'.padLeft(12)} | '
+        '${(worse == 0 ? 0 : extraQP / worse).toStringAsFixed(3).padLeft(11)}');
+  }
+}
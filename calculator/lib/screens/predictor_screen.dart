@@ -1,5 +1,6 @@
 import 'package:flutter/material.dart';
 import 'package:shared_preferences/shared_preferences.dart';
+import '../utils/grade_plan_solver.dart';
 
 /// --- Data Model for a single course in the simulation ---
 class SimulationCourse {
@@ -33,8 +34,13 @@ class _PredictorScreenState extends State<PredictorScreen> {
   double _simulatedSGPA = 0.0;
   double? _requiredSGPAForTarget;
   bool _planComputed = false;
+  bool _isPlanning = false;
+  int _planRequestId = 0; // bumped per run so a stale result is dropped
   String? _feasibilityMessage; // shows when target impossible/edge cases
 
+  /// Exact planner; runs off the UI thread and remembers recent plans
+  final GradePlanSolver _planSolver = GradePlanSolver();
+
   /// Correct COMSATS Grade Scale (highest -> lowest)
   /// NOTE: labels kept for dropdown; map value is the GPA
   final Map<String, double> _gradePoints = const {
@@ -130,9 +136,9 @@ class _PredictorScreenState extends State<PredictorScreen> {
   }
 
   /// --- Best-fit grade distribution:
-  /// Start with all A (4.0). If currentQP > requiredQP, downgrade the course
-  /// that minimally reduces QP until we are just >= requiredQP (or closest).
-  void _makePlan() {
+  /// Ask the solver for the lowest-QP grade assignment that still reaches
+  /// the required QP (see GradePlanSolver), then apply it to the courses.
+  Future<void> _makePlan() async {
     FocusScope.of(context).unfocus();
 
     final requiredSGPA = _calcRequiredSGPA();
@@ -160,90 +166,61 @@ class _PredictorScreenState extends State<PredictorScreen> {
 
     // Else feasible: build plan to hit requiredQP
     final double requiredQP = (requiredSGPA.clamp(0.0, 4.0)) * _crdHrsNextSemester;
+    final courses = List<SimulationCourse>.of(_nextSemesterCourses);
+    final requestId = ++_planRequestId;
 
-    // 1) set all to highest grade first
-    for (final c in _nextSemesterCourses) {
-      c.gradePoint = _ladder.first; // 4.0
-    }
+    setState(() {
+      _isPlanning = true;
+    });
 
-    // Sort courses by credit hours desc to keep big ones as high as possible
-    _nextSemesterCourses.sort((a, b) => b.creditHours.compareTo(a.creditHours));
+    try {
+      final plan = await _planSolver.solve(GradePlanRequest(
+        creditHours: courses.map((c) => c.creditHours).toList(),
+        ladder: _ladder,
+        requiredQP: requiredQP,
+      ));
 
-    double currentQP = _nextSemesterCourses.fold(0.0, (s, c) => s + c.gradePoint * c.creditHours);
+      // Inputs changed (or screen closed) while solving
+      if (!mounted || requestId != _planRequestId) return;
 
-    // If we are already under (shouldn't happen since all A) — just accept
-    if (currentQP <= requiredQP + 1e-6) {
       setState(() {
+        for (var i = 0; i < courses.length; i++) {
+          courses[i].gradePoint = plan.gradePoints[i];
+        }
         _planComputed = true;
         _feasibilityMessage = null;
       });
       _recomputeSGPA();
-      return;
-    }
-
-    // 2) While we’re above the needed QP, lower grades in the gentlest steps
-    // Greedy: in each iteration, choose the downgrade that reduces QP just enough.
-    const double eps = 1e-6;
-    int safety = 10000; // safety to avoid infinite loops
-
-    // Track each course index in ladder
-    final Map<SimulationCourse, int> ladderIndex = {
-      for (final c in _nextSemesterCourses) c: 0, // all at 4.0 initially (index 0)
-    };
-
-    while (currentQP - requiredQP > eps && safety-- > 0) {
-      double gap = currentQP - requiredQP;
-
-      // Find the smallest downgrade (deltaQP) that is >= gap OR the minimal overall if none cover gap
-      SimulationCourse? bestCourse;
-      double bestDelta = double.infinity;
-      int bestNextIdx = -1;
-
-      for (final c in _nextSemesterCourses) {
-        final idx = ladderIndex[c]!;
-        if (idx >= _ladder.length - 1) continue; // already at lowest
-
-        final nextIdx = idx + 1;
-        final from = _ladder[idx];
-        final to = _ladder[nextIdx];
-        final deltaQP = (from - to) * c.creditHours; // QP reduction if we drop one step
-
-        // Prefer the smallest delta that still clears the gap
-        if (deltaQP >= gap - eps) {
-          if (deltaQP < bestDelta) {
-            bestDelta = deltaQP;
-            bestCourse = c;
-            bestNextIdx = nextIdx;
-          }
-        } else {
-          // Keep track of the smallest delta overall in case nothing clears the whole gap
-          if (bestCourse == null && deltaQP < bestDelta) {
-            bestDelta = deltaQP;
-            bestCourse = c;
-            bestNextIdx = nextIdx;
-          }
-        }
-      }
-
-      if (bestCourse == null) {
-        // no further downgrades possible
-        break;
+    } catch (e) {
+      if (!mounted || requestId != _planRequestId) return;
+      setState(() {
+        _planComputed = false;
+      });
+      ScaffoldMessenger.of(context).showSnackBar(
+        const SnackBar(content: Text('Could not plan grades. Please check the credit hours.')),
+      );
+    } finally {
+      if (mounted && requestId == _planRequestId) {
+        setState(() {
+          _isPlanning = false;
+        });
       }
-
-      // Apply downgrade
-      ladderIndex[bestCourse] = bestNextIdx;
-      bestCourse.gradePoint = _ladder[bestNextIdx];
-      currentQP -= bestDelta;
     }
+  }
 
-    setState(() {
-      _planComputed = true;
-      _feasibilityMessage = null;
-    });
-    _recomputeSGPA();
+  /// Drops an in-flight plan; called whenever an input changes
+  void _cancelPlanning() {
+    _planRequestId++;
+    _isPlanning = false;
   }
 
   /// Helpers
+  // Credit hours to the planner's 2 decimals, without trailing zeros (3.0, 1.5, 1.04)
+  String _formatCredits(double c) {
+    final text = c.toStringAsFixed(2);
+    return text.endsWith('0') ? text.substring(0, text.length - 1) : text;
+  }
+
   String _labelForGpa(double g) {
     // find closest label by exact value; if not found (floating issues), choose nearest
     for (final e in _gradePoints.entries) {
@@ -289,6 +266,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
           onChanged: (_) {
             // whenever inputs change, clear old plan
             setState(() {
+              _cancelPlanning();
               _planComputed = false;
               _feasibilityMessage = null;
               _requiredSGPAForTarget = null;
@@ -331,6 +309,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
               icon: const Icon(Icons.delete_forever, color: Colors.redAccent, size: 20),
               onPressed: () {
                 setState(() {
+                  _cancelPlanning();
                   _nextSemesterCourses.removeAt(index);
                   _planComputed = false;
                   _feasibilityMessage = null;
@@ -346,7 +325,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
               width: 110,
               child: TextField(
                 controller:
-                TextEditingController(text: course.creditHours.toStringAsFixed(1)),
+                TextEditingController(text: _formatCredits(course.creditHours)),
                 keyboardType: const TextInputType.numberWithOptions(decimal: true),
                 style: const TextStyle(color: Colors.white),
                 decoration: const InputDecoration(
@@ -357,8 +336,11 @@ class _PredictorScreenState extends State<PredictorScreen> {
                   contentPadding: EdgeInsets.symmetric(horizontal: 8, vertical: 10),
                 ),
                 onChanged: (v) {
-                  final val = double.tryParse(v) ?? 0.0;
-                  course.creditHours = val.clamp(0.0, 30.0);
+                  final parsed = double.tryParse(v) ?? 0.0;
+                  final val = parsed.isFinite ? parsed.clamp(0.0, 30.0) : 0.0;
+                  // Planner works to 2 decimals; use the same value everywhere
+                  course.creditHours = (val * 100).round() / 100;
+                  _cancelPlanning();
                   _planComputed = false;
                   _feasibilityMessage = null;
                   _requiredSGPAForTarget = null;
@@ -390,6 +372,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
                 onChanged: (val) {
                   if (val == null) return;
                   course.gradePoint = _gradePoints[val]!;
+                  _cancelPlanning();
                   _planComputed = false;
                   _feasibilityMessage = null;
                   _requiredSGPAForTarget = null;
@@ -489,7 +472,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
         ..._nextSemesterCourses.map((c) => Padding(
           padding: const EdgeInsets.only(top: 4.0),
           child: Text(
-            '${c.name} (${c.creditHours.toStringAsFixed(1)} CrH): ${_labelForGpa(c.gradePoint)}',
+            '${c.name} (${_formatCredits(c.creditHours)} CrH): ${_labelForGpa(c.gradePoint)}',
             style: const TextStyle(color: Colors.white70),
           ),
         )),
@@ -559,7 +542,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
           Padding(
             padding: const EdgeInsets.only(top: 8.0, bottom: 10),
             child: Text(
-              'Total planned credits: ${_crdHrsNextSemester.toStringAsFixed(1)}',
+              'Total planned credits: ${_formatCredits(_crdHrsNextSemester)}',
               style: const TextStyle(color: Colors.white70, fontSize: 12),
             ),
           ),
@@ -573,6 +556,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
               TextButton.icon(
                 onPressed: () {
                   setState(() {
+                    _cancelPlanning();
                     _nextSemesterCourses.add(SimulationCourse(name: 'Subject', creditHours: 3.0));
                     _planComputed = false;
                     _recomputeSGPA();
@@ -585,6 +569,7 @@ class _PredictorScreenState extends State<PredictorScreen> {
               TextButton.icon(
                 onPressed: () {
                   setState(() {
+                    _cancelPlanning();
                     _nextSemesterCourses.add(SimulationCourse(name: 'Major Subject', creditHours: 4.0));
                     _planComputed = false;
                     _recomputeSGPA();
@@ -601,8 +586,14 @@ class _PredictorScreenState extends State<PredictorScreen> {
 
           Center(
             child: ElevatedButton.icon(
-              onPressed: (essentialMissing || coursesMissing) ? null : _makePlan,
-              icon: const Icon(Icons.auto_fix_high, color: Colors.white),
+              onPressed: (essentialMissing || coursesMissing || _isPlanning) ? null : _makePlan,
+              icon: _isPlanning
+                  ? const SizedBox(
+                      width: 18,
+                      height: 18,
+                      child: CircularProgressIndicator(strokeWidth: 2, color: Colors.white),
+                    )
+                  : const Icon(Icons.auto_fix_high, color: Colors.white),
               label: const Text("Plan Grades to Hit Target",
                   style: TextStyle(color: Colors.white, fontWeight: FontWeight.bold, fontSize: 16)),
               style: ElevatedButton.styleFrom(
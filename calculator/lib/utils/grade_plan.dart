@@ -0,0 +1,176 @@
+// Pure Dart (no Flutter imports) so the benchmark can run with `dart run`.
+// GradePlanSolver in grade_plan_solver.dart wraps it for the UI.
+
+import 'dart:typed_data';
+
+/// --- Input for one planning run ---
+/// [creditHours] is in course order, [ladder] is the grade scale
+/// (highest -> lowest) and [requiredQP] the quality points needed this
+/// semester.
+class GradePlanRequest {
+  final List<double> creditHours;
+  final List<double> ladder;
+  final double requiredQP;
+
+  const GradePlanRequest({
+    required this.creditHours,
+    required this.ladder,
+    required this.requiredQP,
+  });
+
+  String get cacheKey =>
+      '${creditHours.join(',')}|${ladder.join(',')}|${requiredQP.toStringAsFixed(6)}';
+}
+
+/// --- Result: one grade point per course, in request order ---
+class GradePlan {
+  final List<double> gradePoints;
+  final double qualityPoints;
+  final bool feasible; // false -> target unreachable, all grades are the highest
+
+  const GradePlan({
+    required this.gradePoints,
+    required this.qualityPoints,
+    required this.feasible,
+  });
+}
+
+/// Most decimal places accepted for grade points and credit hours; bounds
+/// the size of the quality-point table
+const int maxDecimals = 2;
+
+/// --- Exact grade planner ---
+/// Finds the grade assignment whose quality points are the smallest value
+/// that still reaches [GradePlanRequest.requiredQP], i.e. no course is asked
+/// for a higher grade than the target needs. Among equally small plans the
+/// heavier courses keep the higher grades.
+///
+/// Grade points and credit hours are scaled to integers by their actual
+/// number of decimal places (up to [maxDecimals]), so the search runs over
+/// exact quality-point sums: a dynamic program over "which sums are
+/// reachable with the first k courses". Throws [ArgumentError] for negative,
+/// non-finite or too finely divided inputs.
+GradePlan solveGradePlan(GradePlanRequest request) {
+  final n = request.creditHours.length;
+  final gradeScale = _decimalScale(request.ladder, 'ladder');
+  final creditScale = _decimalScale(request.creditHours, 'creditHours');
+  if (!request.requiredQP.isFinite) {
+    throw ArgumentError.value(request.requiredQP, 'requiredQP', 'must be finite');
+  }
+
+  final grades = request.ladder.map((g) => (g * gradeScale).round()).toList();
+  final credits = request.creditHours.map((c) => (c * creditScale).round()).toList();
+
+  // Common factor of the credit hours keeps the sum range small
+  var unit = 0;
+  for (final c in credits) {
+    unit = _gcd(unit, c);
+  }
+  if (unit == 0) unit = 1;
+  final weights = credits.map((c) => c ~/ unit).toList();
+
+  final maxSum = grades.first * weights.fold<int>(0, (s, w) => s + w);
+  final qpScale = gradeScale * creditScale;
+  final required = (request.requiredQP * qpScale / unit - 1e-6).ceil();
+
+  if (required > maxSum) {
+    return _planFromIndexes(request, List.filled(n, 0), unit, qpScale, grades, weights, feasible: false);
+  }
+
+  // Lightest courses first, so the heaviest are decided first when walking back
+  final order = List<int>.generate(n, (i) => i)
+    ..sort((a, b) {
+      final byWeight = weights[a].compareTo(weights[b]);
+      return byWeight != 0 ? byWeight : a.compareTo(b);
+    });
+
+  // picks[k][s] = ladder index chosen for course order[k] to reach sum s
+  final picks = <Int8List>[];
+  var reachable = Uint8List(maxSum + 1)..[0] = 1;
+  var prefixMax = 0;
+
+  for (var k = 0; k < n; k++) {
+    final w = weights[order[k]];
+    final next = Uint8List(maxSum + 1);
+    final pick = Int8List(maxSum + 1)..fillRange(0, maxSum + 1, -1);
+
+    // Ascending s with highest grade first: the first hit on each sum is the
+    // one that gives this course its highest possible grade
+    for (var s = 0; s <= prefixMax; s++) {
+      if (reachable[s] == 0) continue;
+      for (var j = 0; j < grades.length; j++) {
+        final t = s + grades[j] * w;
+        if (pick[t] == -1) {
+          pick[t] = j;
+          next[t] = 1;
+        }
+      }
+    }
+
+    picks.add(pick);
+    reachable = next;
+    prefixMax += grades.first * w;
+  }
+
+  var target = required < 0 ? 0 : required;
+  while (reachable[target] == 0) {
+    target++;
+  }
+
+  final indexes = List<int>.filled(n, 0);
+  for (var k = n - 1; k >= 0; k--) {
+    final j = picks[k][target];
+    indexes[order[k]] = j;
+    target -= grades[j] * weights[order[k]];
+  }
+
+  return _planFromIndexes(request, indexes, unit, qpScale, grades, weights, feasible: true);
+}
+
+GradePlan _planFromIndexes(
+  GradePlanRequest request,
+  List<int> indexes,
+  int unit,
+  int qpScale,
+  List<int> grades,
+  List<int> weights, {
+  required bool feasible,
+}) {
+  var scaledQP = 0;
+  for (var i = 0; i < indexes.length; i++) {
+    scaledQP += grades[indexes[i]] * weights[i];
+  }
+
+  return GradePlan(
+    gradePoints: indexes.map((j) => request.ladder[j]).toList(),
+    qualityPoints: scaledQP * unit / qpScale,
+    feasible: feasible,
+  );
+}
+
+// 10^k for the fewest decimals k that represent every value exactly
+int _decimalScale(List<double> values, String name) {
+  for (final v in values) {
+    if (!v.isFinite || v < 0) {
+      throw ArgumentError.value(v, name, 'must be finite and not negative');
+    }
+  }
+
+  var scale = 1;
+  for (var k = 0; k <= maxDecimals; k++) {
+    if (values.every((v) => ((v * scale) - (v * scale).round()).abs() < 1e-6)) {
+      return scale;
+    }
+    scale *= 10;
+  }
+  throw ArgumentError.value(values, name, 'more than $maxDecimals decimal places');
+}
+
+int _gcd(int a, int b) {
+  while (b != 0) {
+    final t = b;
+    b = a % b;
+    a = t;
+  }
+  return a;
+}
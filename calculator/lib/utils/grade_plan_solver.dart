@@ -0,0 +1,36 @@
+import 'dart:collection';
+
+import 'package:flutter/foundation.dart';
+
+import 'grade_plan.dart';
+
+export 'grade_plan.dart';
+
+/// --- Memoizing, off-UI-thread front end for [solveGradePlan] ---
+/// Keeps the most recent results so toggling back to an earlier set of
+/// inputs answers instantly.
+class GradePlanSolver {
+  static const int _maxCachedPlans = 32;
+
+  final LinkedHashMap<String, GradePlan> _cache = LinkedHashMap<String, GradePlan>();
+
+  Future<GradePlan> solve(GradePlanRequest request) async {
+    final key = request.cacheKey;
+    final cached = _cache.remove(key);
+    if (cached != null) {
+      _cache[key] = cached; // mark as most recently used
+      return cached;
+    }
+
+    // No isolates on web; the table is small enough to build inline there
+    final plan = kIsWeb
+        ? solveGradePlan(request)
+        : await compute(solveGradePlan, request);
+
+    _cache[key] = plan;
+    if (_cache.length > _maxCachedPlans) {
+      _cache.remove(_cache.keys.first);
+    }
+    return plan;
+  }
+}
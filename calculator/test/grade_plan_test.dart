@@ -0,0 +1,96 @@
+import 'dart:math';
+
+import 'package:flutter_test/flutter_test.dart';
+
+import 'package:comsats_cgpa_calculator/utils/grade_plan.dart';
+
+const List<double> _ladder = [4.00, 3.67, 3.33, 3.00, 2.67, 2.33, 2.00, 1.00, 0.00];
+
+/// Smallest reachable QP >= required over every grade combination, or null.
+double? _bruteForceMinQP(List<double> credits, double requiredQP) {
+  double? best;
+
+  void visit(int i, double qp) {
+    if (i == credits.length) {
+      if (qp >= requiredQP - 1e-9 && (best == null || qp < best! - 1e-9)) {
+        best = qp;
+      }
+      return;
+    }
+    for (final g in _ladder) {
+      visit(i + 1, qp + g * credits[i]);
+    }
+  }
+
+  visit(0, 0.0);
+  return best;
+}
+
+double _planQP(GradePlan plan, List<double> credits) {
+  var qp = 0.0;
+  for (var i = 0; i < credits.length; i++) {
+    qp += plan.gradePoints[i] * credits[i];
+  }
+  return qp;
+}
+
+void main() {
+  test('matches brute force on small random course loads', () {
+    final random = Random(7);
+    const creditChoices = [0.5, 1.0, 1.04, 1.5, 2.0, 3.0, 0.75, 4.0];
+
+    for (var run = 0; run < 300; run++) {
+      final credits = List.generate(
+        1 + random.nextInt(4),
+        (_) => creditChoices[random.nextInt(creditChoices.length)],
+      );
+      final totalCredits = credits.fold(0.0, (s, c) => s + c);
+      final requiredQP = random.nextDouble() * 4.2 * totalCredits;
+
+      final plan = solveGradePlan(GradePlanRequest(
+        creditHours: credits,
+        ladder: _ladder,
+        requiredQP: requiredQP,
+      ));
+      final expected = _bruteForceMinQP(credits, requiredQP);
+
+      if (expected == null) {
+        expect(plan.feasible, isFalse, reason: '$credits / $requiredQP');
+        continue;
+      }
+
+      final actual = _planQP(plan, credits);
+      expect(plan.feasible, isTrue, reason: '$credits / $requiredQP');
+      expect(actual, greaterThanOrEqualTo(requiredQP - 1e-9), reason: '$credits / $requiredQP');
+      expect(actual, closeTo(expected, 1e-9), reason: '$credits / $requiredQP');
+      expect(plan.qualityPoints, closeTo(actual, 1e-9));
+    }
+  });
+
+  test('meets the target with two-decimal credit hours', () {
+    const credits = [1.04, 0.75];
+    final requiredQP = 3.4576 * (1.04 + 0.75);
+
+    final plan = solveGradePlan(GradePlanRequest(
+      creditHours: credits,
+      ladder: _ladder,
+      requiredQP: requiredQP,
+    ));
+
+    expect(plan.feasible, isTrue);
+    expect(_planQP(plan, credits), greaterThanOrEqualTo(requiredQP));
+  });
+
+  test('rejects credit hours it cannot represent exactly', () {
+    for (final bad in [double.nan, double.infinity, -1.0, 1.005]) {
+      expect(
+        () => solveGradePlan(GradePlanRequest(
+          creditHours: [3.0, bad],
+          ladder: _ladder,
+          requiredQP: 6.0,
+        )),
+        throwsArgumentError,
+      );
+    }
+  });
+}